@@ -3,15 +3,19 @@ package com.aws.dodo;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.cloudwatchlogs.CloudWatchLogsClient;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.sns.SnsClient;
 
 @Configuration
 public class AwsConfiguration {
 
     @Bean
-    public DynamoDbClient dynamoDbClient() {
-        return DynamoDbClient.builder().build();
+    public DynamoDbClient dynamoDbClient(TracingExecutionInterceptor tracingInterceptor) {
+        return DynamoDbClient.builder()
+                .overrideConfiguration(c -> c.addExecutionInterceptor(tracingInterceptor))
+                .build();
     }
 
     @Bean
@@ -22,8 +26,18 @@ public class AwsConfiguration {
     }
 
     @Bean
-    public CloudWatchLogsClient cloudWatchLogsClient() {
-        return CloudWatchLogsClient.builder().build();
+    public CloudWatchLogsClient cloudWatchLogsClient(TracingExecutionInterceptor tracingInterceptor) {
+        return CloudWatchLogsClient.builder()
+                .overrideConfiguration(c -> c.addExecutionInterceptor(tracingInterceptor))
+                .build();
+    }
+
+    @Bean
+    public SnsClient snsClient(TracingExecutionInterceptor tracingInterceptor) {
+        return SnsClient.builder()
+                .region(Region.EU_WEST_3)
+                .overrideConfiguration(c -> c.addExecutionInterceptor(tracingInterceptor))
+                .build();
     }
 
 }
@@ -19,9 +19,14 @@ public class CloudWatchLogService {
     private static final String LOG_GROUP = "/aws/lambda/user-management";
 
     private final CloudWatchLogsClient cloudWatchLogsClient;
+    private final TraceRecorder traceRecorder;
+    private final DeadlineGuard deadlineGuard;
 
-    public CloudWatchLogService(CloudWatchLogsClient cloudWatchLogsClient) {
+    public CloudWatchLogService(CloudWatchLogsClient cloudWatchLogsClient, TraceRecorder traceRecorder,
+                                DeadlineGuard deadlineGuard) {
         this.cloudWatchLogsClient = cloudWatchLogsClient;
+        this.traceRecorder = traceRecorder;
+        this.deadlineGuard = deadlineGuard;
     }
 
     public void logOperationStart(String operation, String userId, String requestId) {
@@ -52,6 +57,36 @@ public class CloudWatchLogService {
         writeToCloudWatch(logData);
     }
 
+    public void logBatchOperationStart(String operation, int itemCount, String requestId) {
+        Map<String, String> logData = new HashMap<>();
+        logData.put("timestamp", Instant.now().toString());
+        logData.put("operation", operation);
+        logData.put("itemCount", String.valueOf(itemCount));
+        logData.put("requestId", requestId);
+        logData.put("level", "INFO");
+        logData.put("status", "START");
+
+        log.info("Operation started: {} - items: {} - requestId: {}", operation, itemCount, requestId);
+        writeToCloudWatch(logData);
+    }
+
+    public void logBatchOperationSuccess(String operation, int itemCount, int completedCount,
+                                         String requestId, long duration) {
+        Map<String, String> logData = new HashMap<>();
+        logData.put("timestamp", Instant.now().toString());
+        logData.put("operation", operation);
+        logData.put("itemCount", String.valueOf(itemCount));
+        logData.put("completedCount", String.valueOf(completedCount));
+        logData.put("requestId", requestId);
+        logData.put("durationMs", String.valueOf(duration));
+        logData.put("status", "SUCCESS");
+        logData.put("level", "INFO");
+
+        log.info("Operation completed: {} - duration: {}ms - items: {}/{} - requestId: {}",
+                operation, duration, completedCount, itemCount, requestId);
+        writeToCloudWatch(logData);
+    }
+
     public void logOperationError(String operation, String userId, String requestId, Exception e) {
         Map<String, String> logData = new HashMap<>();
         logData.put("timestamp", Instant.now().toString());
@@ -112,7 +147,11 @@ public class CloudWatchLogService {
     }
 
     private void writeToCloudWatch(Map<String, String> logData) {
-        try {
+        if (!deadlineGuard.allowsNonEssentialWork()) {
+            log.debug("Budget faible, envoi CloudWatch ignoré : {}", logData);
+            return;
+        }
+        try (TraceRecorder.Scope ignored = traceRecorder.startSpan("log-shipping")) {
             String logStreamName = "lambda-" + Instant.now().getEpochSecond();
             String logMessage = formatLogMessage(logData);
 
@@ -125,6 +164,7 @@ public class CloudWatchLogService {
                     .logGroupName(LOG_GROUP)
                     .logStreamName(logStreamName)
                     .logEvents(Collections.singletonList(logEvent))
+                    .overrideConfiguration(o -> o.apiCallTimeout(deadlineGuard.nonEssentialApiCallTimeout("PutLogEvents")))
                     .build();
 
             cloudWatchLogsClient.putLogEvents(putLogEventsRequest);
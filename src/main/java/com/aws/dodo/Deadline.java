@@ -0,0 +1,24 @@
+package com.aws.dodo;
+
+import java.time.Duration;
+
+/**
+ * Échéance absolue d'une invocation, calculée à partir de
+ * {@code Context.getRemainingTimeInMillis()} à l'entrée du handler.
+ */
+public final class Deadline {
+
+    private final long expiresAtNanos;
+
+    private Deadline(long expiresAtNanos) {
+        this.expiresAtNanos = expiresAtNanos;
+    }
+
+    public static Deadline after(long remainingMillis) {
+        return new Deadline(System.nanoTime() + Duration.ofMillis(remainingMillis).toNanos());
+    }
+
+    public long remainingMillis() {
+        return Duration.ofNanos(expiresAtNanos - System.nanoTime()).toMillis();
+    }
+}
@@ -0,0 +1,15 @@
+package com.aws.dodo;
+
+public class DeadlineExceededException extends RuntimeException {
+
+    private final String stage;
+
+    public DeadlineExceededException(String stage, long remainingMillis) {
+        super("Budget d'exécution épuisé avant '" + stage + "' (restant : " + remainingMillis + "ms)");
+        this.stage = stage;
+    }
+
+    public String getStage() {
+        return stage;
+    }
+}
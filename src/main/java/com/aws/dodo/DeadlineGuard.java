@@ -0,0 +1,136 @@
+package com.aws.dodo;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Porte l'échéance de l'invocation courante jusqu'au service et au repository.
+ * Chaque appel SDK reçoit un apiCallTimeout égal au budget restant moins une marge
+ * de sécurité, pour que le handler puisse répondre 503 avant le timeout de la Lambda.
+ */
+@Component
+public class DeadlineGuard {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeadlineGuard.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final String METRIC_NAMESPACE = "UserManagement";
+
+    private final ThreadLocal<Deadline> currentDeadline = new ThreadLocal<>();
+    private final AtomicLong deadlineExceededCount = new AtomicLong();
+
+    private final long safetyMarginMillis;
+    private final long nonEssentialMinMillis;
+
+    public DeadlineGuard(@Value("${deadline.safety-margin-ms:500}") long safetyMarginMillis,
+                         @Value("${deadline.non-essential-min-ms:1500}") long nonEssentialMinMillis) {
+        this.safetyMarginMillis = safetyMarginMillis;
+        this.nonEssentialMinMillis = nonEssentialMinMillis;
+    }
+
+    public void begin(long remainingMillis) {
+        currentDeadline.set(Deadline.after(remainingMillis));
+    }
+
+    public void end() {
+        currentDeadline.remove();
+    }
+
+    public <T> Callable<T> propagate(Callable<T> task) {
+        Deadline deadline = currentDeadline.get();
+        if (deadline == null) {
+            return task;
+        }
+        return () -> {
+            currentDeadline.set(deadline);
+            try {
+                return task.call();
+            } finally {
+                currentDeadline.remove();
+            }
+        };
+    }
+
+    public long remainingBudgetMillis() {
+        Deadline deadline = currentDeadline.get();
+        if (deadline == null) {
+            return Long.MAX_VALUE;
+        }
+        return deadline.remainingMillis() - safetyMarginMillis;
+    }
+
+    /**
+     * Vérifie qu'il reste du budget pour l'étape et retourne le timeout à appliquer à l'appel SDK.
+     */
+    public Duration apiCallTimeout(String stage) {
+        long budget = remainingBudgetMillis();
+        if (budget <= 0) {
+            throw new DeadlineExceededException(stage, budget + safetyMarginMillis);
+        }
+        return budget == Long.MAX_VALUE ? null : Duration.ofMillis(budget);
+    }
+
+    /**
+     * Timeout d'un appel non essentiel (envoi de logs...) : il ne peut consommer que le budget
+     * au-delà de {@code deadline.non-essential-min-ms}, réservé au chemin essentiel.
+     */
+    public Duration nonEssentialApiCallTimeout(String stage) {
+        long budget = remainingBudgetMillis();
+        if (budget == Long.MAX_VALUE) {
+            return null;
+        }
+        long spare = budget - nonEssentialMinMillis;
+        if (spare <= 0) {
+            throw new DeadlineExceededException(stage, budget + safetyMarginMillis);
+        }
+        return Duration.ofMillis(spare);
+    }
+
+    public void checkpoint(String stage) {
+        apiCallTimeout(stage);
+    }
+
+    public boolean allowsNonEssentialWork() {
+        return remainingBudgetMillis() >= nonEssentialMinMillis;
+    }
+
+    public void recordDeadlineExceeded(String stage) {
+        long total = deadlineExceededCount.incrementAndGet();
+        logger.warn("Deadline dépassée à l'étape {} - total sur ce conteneur: {}", stage, total);
+        try {
+            System.out.println(objectMapper.writeValueAsString(deadlineExceededMetric(stage)));
+        } catch (JsonProcessingException e) {
+            logger.warn("Impossible de sérialiser la métrique DeadlineExceeded: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Document Embedded Metric Format : CloudWatch extrait la métrique depuis stdout sans appel API.
+     */
+    Map<String, Object> deadlineExceededMetric(String stage) {
+        Map<String, Object> metric = new LinkedHashMap<>();
+        metric.put("_aws", Map.of(
+                "Timestamp", System.currentTimeMillis(),
+                "CloudWatchMetrics", List.of(Map.of(
+                        "Namespace", METRIC_NAMESPACE,
+                        "Dimensions", List.of(List.of("Stage")),
+                        "Metrics", List.of(Map.of("Name", "DeadlineExceeded", "Unit", "Count"))))));
+        metric.put("Stage", stage);
+        metric.put("DeadlineExceeded", 1);
+        return metric;
+    }
+
+    public long getDeadlineExceededCount() {
+        return deadlineExceededCount.get();
+    }
+}
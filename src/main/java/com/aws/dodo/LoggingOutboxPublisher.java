@@ -0,0 +1,25 @@
+package com.aws.dodo;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Remplace SNS en local (profil "local") : les événements relayés sont seulement journalisés.
+ */
+@Component
+@Profile("local")
+public class LoggingOutboxPublisher implements OutboxPublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoggingOutboxPublisher.class);
+
+    @Override
+    public List<String> publishBatch(List<OutboxEvent> events) {
+        events.forEach(event -> logger.info("[outbox] {} {} {} : {}",
+                event.getUserId(), event.getEventId(), event.getEventType(), event.getPayload()));
+        return List.of();
+    }
+}
@@ -0,0 +1,93 @@
+package com.aws.dodo;
+
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbBean;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbPartitionKey;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSortKey;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Événement utilisateur écrit dans la même transaction que l'item User,
+ * puis relayé vers SNS par {@link OutboxRelayHandler} via DynamoDB Streams.
+ */
+@DynamoDbBean
+public class OutboxEvent {
+
+    public static final String USER_CREATED = "USER_CREATED";
+    public static final String USER_UPDATED = "USER_UPDATED";
+    public static final String USER_DELETED = "USER_DELETED";
+
+    private static final long RETENTION_SECONDS = Duration.ofDays(1).toSeconds();
+
+    private String userId;
+    private String eventId;
+    private String eventType;
+    private String payload;
+    private Long createdAt;
+    private Long expiresAt;
+
+    public OutboxEvent() {
+    }
+
+    public OutboxEvent(String userId, String eventType, String payload) {
+        long now = System.currentTimeMillis();
+        this.userId = userId;
+        // préfixe horodaté : les événements d'un même userId se trient dans l'ordre d'écriture
+        this.eventId = String.format("%013d-%s", now, UUID.randomUUID());
+        this.eventType = eventType;
+        this.payload = payload;
+        this.createdAt = now;
+        this.expiresAt = now / 1000 + RETENTION_SECONDS;
+    }
+
+    @DynamoDbPartitionKey
+    public String getUserId() {
+        return userId;
+    }
+
+    @DynamoDbSortKey
+    public String getEventId() {
+        return eventId;
+    }
+
+    public String getEventType() {
+        return eventType;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public Long getCreatedAt() {
+        return createdAt;
+    }
+
+    public Long getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    public void setEventId(String eventId) {
+        this.eventId = eventId;
+    }
+
+    public void setEventType(String eventType) {
+        this.eventType = eventType;
+    }
+
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+
+    public void setCreatedAt(Long createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public void setExpiresAt(Long expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
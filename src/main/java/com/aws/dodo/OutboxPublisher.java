@@ -0,0 +1,13 @@
+package com.aws.dodo;
+
+import java.util.List;
+
+/**
+ * Destination des événements drainés de l'outbox.
+ * Retourne les eventId dont la publication a échoué, dans l'ordre reçu.
+ */
+@FunctionalInterface
+public interface OutboxPublisher {
+
+    List<String> publishBatch(List<OutboxEvent> events);
+}
@@ -0,0 +1,116 @@
+package com.aws.dodo;
+
+import com.amazonaws.services.lambda.runtime.events.DynamodbEvent;
+import com.amazonaws.services.lambda.runtime.events.StreamsEventResponse;
+import com.amazonaws.services.lambda.runtime.events.models.dynamodb.AttributeValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Draine les événements de l'outbox par lots de 10 (limite de PublishBatch) mélangeant les utilisateurs.
+ * Un lot ne contient jamais deux événements du même userId : l'ordre par utilisateur ne dépend donc pas
+ * de l'ordre interne d'un PublishBatch, que SNS ne garantit pas sur un topic standard.
+ * Après un échec, les événements suivants du même userId ne sont pas tentés.
+ * <p>
+ * Livraison au moins une fois : Lambda rejoue le stream à partir du plus petit numéro de séquence
+ * en échec, donc des événements déjà publiés (y compris d'autres utilisateurs) peuvent être renvoyés.
+ * Les abonnés doivent dédupliquer sur l'attribut {@code eventId}.
+ * <p>
+ * Indépendant de Lambda : un {@link DynamodbEvent} construit à la main et un {@link OutboxPublisher}
+ * de substitution suffisent pour l'exécuter en local.
+ */
+@Component
+public class OutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+    private static final int MAX_BATCH_SIZE = 10;
+
+    private final OutboxPublisher publisher;
+
+    public OutboxRelay(OutboxPublisher publisher) {
+        this.publisher = publisher;
+    }
+
+    public StreamsEventResponse relay(DynamodbEvent event) {
+        List<OutboxEvent> events = new ArrayList<>();
+        Map<String, String> sequenceNumbers = new HashMap<>();
+        for (DynamodbEvent.DynamodbStreamRecord record : event.getRecords()) {
+            if (!"INSERT".equals(record.getEventName())) {
+                continue;
+            }
+            OutboxEvent outboxEvent = toOutboxEvent(record.getDynamodb().getNewImage());
+            events.add(outboxEvent);
+            sequenceNumbers.put(outboxEvent.getEventId(), record.getDynamodb().getSequenceNumber());
+        }
+
+        List<StreamsEventResponse.BatchItemFailure> failures = new ArrayList<>();
+        for (String eventId : drain(events)) {
+            failures.add(new StreamsEventResponse.BatchItemFailure(sequenceNumbers.get(eventId)));
+        }
+        return new StreamsEventResponse(failures);
+    }
+
+    /**
+     * Retourne le premier eventId non publié de chaque userId en échec.
+     */
+    public List<String> drain(List<OutboxEvent> events) {
+        Map<String, Deque<OutboxEvent>> byUser = new LinkedHashMap<>();
+        for (OutboxEvent event : events) {
+            byUser.computeIfAbsent(event.getUserId(), k -> new ArrayDeque<>()).add(event);
+        }
+
+        List<String> firstFailures = new ArrayList<>();
+        while (!byUser.isEmpty()) {
+            // une vague = au plus un événement (le plus ancien restant) par utilisateur
+            List<OutboxEvent> wave = new ArrayList<>();
+            byUser.values().forEach(queue -> wave.add(queue.poll()));
+            byUser.values().removeIf(Deque::isEmpty);
+
+            for (int from = 0; from < wave.size(); from += MAX_BATCH_SIZE) {
+                List<OutboxEvent> batch = wave.subList(from, Math.min(from + MAX_BATCH_SIZE, wave.size()));
+                Set<String> failed = publish(batch);
+                for (OutboxEvent event : batch) {
+                    if (failed.contains(event.getEventId())) {
+                        firstFailures.add(event.getEventId());
+                        byUser.remove(event.getUserId());
+                    }
+                }
+            }
+        }
+        return firstFailures;
+    }
+
+    private Set<String> publish(List<OutboxEvent> batch) {
+        try {
+            return new HashSet<>(publisher.publishBatch(batch));
+        } catch (Exception e) {
+            logger.error("Échec du relais outbox pour un lot de {} événement(s)", batch.size(), e);
+            Set<String> all = new HashSet<>();
+            batch.forEach(event -> all.add(event.getEventId()));
+            return all;
+        }
+    }
+
+    private static OutboxEvent toOutboxEvent(Map<String, AttributeValue> image) {
+        OutboxEvent event = new OutboxEvent();
+        event.setUserId(image.get("userId").getS());
+        event.setEventId(image.get("eventId").getS());
+        event.setEventType(image.get("eventType").getS());
+        event.setPayload(image.get("payload").getS());
+        if (image.containsKey("createdAt")) {
+            event.setCreatedAt(Long.valueOf(image.get("createdAt").getN()));
+        }
+        return event;
+    }
+}
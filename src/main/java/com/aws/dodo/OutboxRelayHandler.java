@@ -0,0 +1,45 @@
+package com.aws.dodo;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.DynamodbEvent;
+import com.amazonaws.services.lambda.runtime.events.StreamsEventResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Handler branché sur le stream de la table UserOutbox (INSERT uniquement).
+ * Les échecs sont renvoyés en batchItemFailures pour que Lambda rejoue à partir
+ * du premier événement non publié ; voir {@link OutboxRelay} pour l'ordre et les doublons.
+ */
+public class OutboxRelayHandler implements RequestHandler<DynamodbEvent, StreamsEventResponse> {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelayHandler.class);
+    private static final ConfigurableApplicationContext applicationContext;
+    private static final OutboxRelay outboxRelay;
+    private static final TraceRecorder traceRecorder;
+    private static final DeadlineGuard deadlineGuard;
+
+    static {
+        applicationContext = SpringApplication.run(FirstLambdaApplication.class);
+        outboxRelay = applicationContext.getBean(OutboxRelay.class);
+        traceRecorder = applicationContext.getBean(TraceRecorder.class);
+        deadlineGuard = applicationContext.getBean(DeadlineGuard.class);
+    }
+
+    @Override
+    public StreamsEventResponse handleRequest(DynamodbEvent event, Context context) {
+        logger.info("Relais outbox - ID: {} - {} enregistrement(s)", context.getAwsRequestId(), event.getRecords().size());
+
+        traceRecorder.beginTrace(context.getAwsRequestId());
+        deadlineGuard.begin(context.getRemainingTimeInMillis());
+        try {
+            return outboxRelay.relay(event);
+        } finally {
+            deadlineGuard.end();
+            traceRecorder.endTrace();
+        }
+    }
+}
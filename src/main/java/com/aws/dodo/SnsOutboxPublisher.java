@@ -0,0 +1,81 @@
+package com.aws.dodo;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.sns.SnsClient;
+import software.amazon.awssdk.services.sns.model.BatchResultErrorEntry;
+import software.amazon.awssdk.services.sns.model.MessageAttributeValue;
+import software.amazon.awssdk.services.sns.model.PublishBatchRequest;
+import software.amazon.awssdk.services.sns.model.PublishBatchRequestEntry;
+import software.amazon.awssdk.services.sns.model.PublishBatchResponse;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+@Component
+@Profile("!local")
+public class SnsOutboxPublisher implements OutboxPublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(SnsOutboxPublisher.class);
+
+    private final SnsClient snsClient;
+    private final DeadlineGuard deadlineGuard;
+    private final String topicArn;
+    private final boolean fifoTopic;
+
+    public SnsOutboxPublisher(SnsClient snsClient, DeadlineGuard deadlineGuard,
+                              @Value("${outbox.topic-arn:arn:aws:sns:eu-west-3:225578988341:userTopic}") String topicArn) {
+        this.snsClient = snsClient;
+        this.deadlineGuard = deadlineGuard;
+        this.topicArn = topicArn;
+        this.fifoTopic = topicArn.endsWith(".fifo");
+    }
+
+    @Override
+    public List<String> publishBatch(List<OutboxEvent> events) {
+        List<PublishBatchRequestEntry> entries = new ArrayList<>();
+        for (int i = 0; i < events.size(); i++) {
+            OutboxEvent event = events.get(i);
+            PublishBatchRequestEntry.Builder entry = PublishBatchRequestEntry.builder()
+                    .id("e" + i)
+                    .message(event.getPayload())
+                    .messageAttributes(Map.of(
+                            "eventType", stringAttribute(event.getEventType()),
+                            "eventId", stringAttribute(event.getEventId())));
+            if (fifoTopic) {
+                entry.messageGroupId(event.getUserId()).messageDeduplicationId(event.getEventId());
+            }
+            entries.add(entry.build());
+        }
+
+        PublishBatchResponse response = snsClient.publishBatch(PublishBatchRequest.builder()
+                .topicArn(topicArn)
+                .publishBatchRequestEntries(entries)
+                .overrideConfiguration(o -> o.apiCallTimeout(deadlineGuard.apiCallTimeout("PublishBatch")))
+                .build());
+
+        List<BatchResultErrorEntry> failures = new ArrayList<>(response.failed());
+        failures.sort(Comparator.comparingInt(failure -> Integer.parseInt(failure.id().substring(1))));
+        List<String> failedEventIds = new ArrayList<>();
+        for (BatchResultErrorEntry failure : failures) {
+            OutboxEvent event = events.get(Integer.parseInt(failure.id().substring(1)));
+            logger.warn("Publication SNS échouée pour l'événement {} ({}) : {}",
+                    event.getEventId(), event.getUserId(), failure.message());
+            failedEventIds.add(event.getEventId());
+        }
+        logger.info("{} événement(s) publiés sur {}", events.size() - failedEventIds.size(), topicArn);
+        return failedEventIds;
+    }
+
+    private static MessageAttributeValue stringAttribute(String value) {
+        return MessageAttributeValue.builder()
+                .dataType("String")
+                .stringValue(value)
+                .build();
+    }
+}
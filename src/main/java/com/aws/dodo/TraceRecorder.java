@@ -0,0 +1,282 @@
+package com.aws.dodo;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Timeline par requête, indexée par l'awsRequestId de la Lambda.
+ * Les spans s'imbriquent sur le thread courant ; à la fin de l'invocation la trace
+ * est émise au format segment X-Ray sur stdout ou vers un daemon UDP local.
+ */
+@Component
+public class TraceRecorder {
+
+    private static final Logger logger = LoggerFactory.getLogger(TraceRecorder.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final String UDP_HEADER = "{\"format\": \"json\", \"version\": 1}\n";
+    private static final Scope NOOP_SCOPE = new Scope(null, null);
+
+    private final ThreadLocal<ActiveTrace> currentTrace = new ThreadLocal<>();
+    private final ThreadLocal<TraceSpan> currentSpan = new ThreadLocal<>();
+
+    private final String serviceName;
+    private final double samplingRate;
+    private final String emitter;
+    private final String daemonHost;
+    private final int daemonPort;
+
+    public TraceRecorder(@Value("${spring.application.name:firstLambda}") String serviceName,
+                         @Value("${tracing.sampling-rate:1.0}") double samplingRate,
+                         @Value("${tracing.emitter:stdout}") String emitter,
+                         @Value("${tracing.daemon-address:127.0.0.1:2000}") String daemonAddress) {
+        this.serviceName = serviceName;
+        this.samplingRate = samplingRate;
+        this.emitter = emitter;
+        int separator = daemonAddress.lastIndexOf(':');
+        this.daemonHost = daemonAddress.substring(0, separator);
+        this.daemonPort = Integer.parseInt(daemonAddress.substring(separator + 1));
+    }
+
+    public void beginTrace(String requestId) {
+        currentTrace.remove();
+        currentSpan.remove();
+        if (samplingRate <= 0 || ThreadLocalRandom.current().nextDouble() >= samplingRate) {
+            return;
+        }
+        ActiveTrace trace = new ActiveTrace(requestId, new TraceSpan(serviceName, null));
+        currentTrace.set(trace);
+        currentSpan.set(trace.root);
+    }
+
+    public void endTrace() {
+        ActiveTrace trace = currentTrace.get();
+        currentTrace.remove();
+        currentSpan.remove();
+        if (trace == null) {
+            return;
+        }
+        trace.ended = true;
+        trace.root.end();
+        try {
+            emit(trace);
+        } catch (RuntimeException e) {
+            // appelé depuis le finally du handler : la trace ne doit jamais faire échouer l'invocation
+            logger.warn("Impossible d'émettre la trace {}: {}", trace.requestId, e.getMessage());
+        }
+    }
+
+    public boolean isSampled() {
+        ActiveTrace trace = currentTrace.get();
+        return trace != null && !trace.ended;
+    }
+
+    public Scope startSpan(String name) {
+        TraceSpan parent = currentSpan.get();
+        // un worker de fan-out encore actif après endTrace() n'ajoute plus rien à la trace émise
+        if (parent == null || !isSampled()) {
+            return NOOP_SCOPE;
+        }
+        TraceSpan span = new TraceSpan(name, parent);
+        currentSpan.set(span);
+        return new Scope(this, span);
+    }
+
+    public TraceSpan currentSpan() {
+        return currentSpan.get();
+    }
+
+    /**
+     * Rattache la tâche à la trace et au span courants lorsqu'elle s'exécute sur un autre thread.
+     */
+    public <T> Callable<T> propagate(Callable<T> task) {
+        ActiveTrace trace = currentTrace.get();
+        TraceSpan parent = currentSpan.get();
+        if (trace == null) {
+            return task;
+        }
+        return () -> {
+            currentTrace.set(trace);
+            currentSpan.set(parent);
+            try {
+                return task.call();
+            } finally {
+                currentTrace.remove();
+                currentSpan.remove();
+            }
+        };
+    }
+
+    public void annotateRoot(String key, Object value) {
+        ActiveTrace trace = currentTrace.get();
+        if (trace != null) {
+            trace.root.put(key, value);
+        }
+    }
+
+    private void close(TraceSpan span) {
+        span.end();
+        if (currentSpan.get() == span) {
+            currentSpan.set(span.getParent());
+        }
+    }
+
+    private void emit(ActiveTrace trace) {
+        try {
+            String document = objectMapper.writeValueAsString(toSegment(trace, trace.root));
+            if ("udp".equalsIgnoreCase(emitter)) {
+                sendToDaemon(document);
+            } else {
+                System.out.println(document);
+            }
+        } catch (JsonProcessingException | RuntimeException e) {
+            logger.warn("Impossible de sérialiser la trace {}: {}", trace.requestId, e.getMessage());
+        }
+    }
+
+    private void sendToDaemon(String document) {
+        byte[] payload = (UDP_HEADER + document).getBytes(StandardCharsets.UTF_8);
+        try (DatagramSocket socket = new DatagramSocket()) {
+            socket.send(new DatagramPacket(payload, payload.length, InetAddress.getByName(daemonHost), daemonPort));
+        } catch (IOException e) {
+            logger.warn("Impossible d'envoyer la trace au daemon {}:{}: {}", daemonHost, daemonPort, e.getMessage());
+        }
+    }
+
+    private Map<String, Object> toSegment(ActiveTrace trace, TraceSpan span) {
+        Map<String, Object> segment = new LinkedHashMap<>();
+        segment.put("name", span.getName());
+        segment.put("id", span.getId());
+        if (span == trace.root) {
+            segment.put("trace_id", trace.traceId);
+            segment.put("origin", "AWS::Lambda::Function");
+            segment.put("annotations", Map.of("awsRequestId", trace.requestId));
+        }
+        segment.put("start_time", trace.toEpochSeconds(span.getStartNanos()));
+        long endNanos = span.getEndNanos();
+        if (endNanos == 0) {
+            // span encore ouvert (worker de fan-out non terminé) : X-Ray attend in_progress sans end_time
+            segment.put("in_progress", true);
+        } else {
+            segment.put("end_time", trace.toEpochSeconds(endNanos));
+        }
+        if (span.getNamespace() != null) {
+            segment.put("namespace", span.getNamespace());
+        }
+        if (span.isError()) {
+            segment.put("error", true);
+        }
+        if (span.isFault()) {
+            segment.put("fault", true);
+        }
+        Map<String, Object> aws = span.getAws();
+        if (!aws.isEmpty()) {
+            segment.put("aws", aws);
+        }
+        if (span.getHttpStatus() != null) {
+            segment.put("http", Map.of("response", Map.of("status", span.getHttpStatus())));
+        }
+        Map<String, Object> metadata = span.getMetadata();
+        if (endNanos != 0) {
+            metadata.put("durationNanos", endNanos - span.getStartNanos());
+        }
+        segment.put("metadata", Map.of("default", metadata));
+
+        List<Map<String, Object>> subsegments = new ArrayList<>();
+        synchronized (span.getChildren()) {
+            for (TraceSpan child : span.getChildren()) {
+                subsegments.add(toSegment(trace, child));
+            }
+        }
+        if (!subsegments.isEmpty()) {
+            segment.put("subsegments", subsegments);
+        }
+        return segment;
+    }
+
+    public static final class Scope implements AutoCloseable {
+
+        private final TraceRecorder recorder;
+        private final TraceSpan span;
+
+        private Scope(TraceRecorder recorder, TraceSpan span) {
+            this.recorder = recorder;
+            this.span = span;
+        }
+
+        public void put(String key, Object value) {
+            if (span != null) {
+                span.put(key, value);
+            }
+        }
+
+        public void putAws(String key, Object value) {
+            if (span != null) {
+                span.putAws(key, value);
+            }
+        }
+
+        public void setHttpStatus(int httpStatus) {
+            if (span != null) {
+                span.setHttpStatus(httpStatus);
+            }
+        }
+
+        public void markError(Throwable t) {
+            if (span != null) {
+                span.markError(t);
+            }
+        }
+
+        public void setNamespace(String namespace) {
+            if (span != null) {
+                span.setNamespace(namespace);
+            }
+        }
+
+        @Override
+        public void close() {
+            if (span != null) {
+                recorder.close(span);
+            }
+        }
+    }
+
+    private static final class ActiveTrace {
+
+        private final String requestId;
+        private final String traceId;
+        private final TraceSpan root;
+        private final long anchorEpochMicros;
+        private volatile boolean ended;
+
+        private ActiveTrace(String requestId, TraceSpan root) {
+            this.requestId = requestId;
+            this.root = root;
+            long epochMillis = System.currentTimeMillis();
+            this.anchorEpochMicros = epochMillis * 1000;
+            this.traceId = String.format("1-%08x-%024x", epochMillis / 1000,
+                    new BigInteger(96, ThreadLocalRandom.current()));
+        }
+
+        private double toEpochSeconds(long nanos) {
+            return (anchorEpochMicros + (nanos - root.getStartNanos()) / 1000) / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.aws.dodo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Un segment (ou sous-segment) de la timeline d'une requête.
+ * Les durées sont mesurées en nanosecondes via {@link System#nanoTime()} ;
+ * la conversion en secondes epoch se fait à l'export au format X-Ray.
+ */
+public class TraceSpan {
+
+    private final String id;
+    private final String name;
+    private final TraceSpan parent;
+    private final long startNanos;
+    // un span peut être complété par un thread de fan-out pendant que la trace est sérialisée
+    private volatile long endNanos;
+    private volatile String namespace;
+    private volatile boolean error;
+    private volatile boolean fault;
+    private volatile Integer httpStatus;
+    private final Map<String, Object> aws = Collections.synchronizedMap(new LinkedHashMap<>());
+    private final Map<String, Object> metadata = Collections.synchronizedMap(new LinkedHashMap<>());
+    private final List<TraceSpan> children = Collections.synchronizedList(new ArrayList<>());
+
+    TraceSpan(String name, TraceSpan parent) {
+        this.id = String.format("%016x", ThreadLocalRandom.current().nextLong());
+        this.name = name;
+        this.parent = parent;
+        this.startNanos = System.nanoTime();
+        if (parent != null) {
+            parent.children.add(this);
+        }
+    }
+
+    void end() {
+        if (endNanos == 0) {
+            endNanos = System.nanoTime();
+        }
+    }
+
+    public void put(String key, Object value) {
+        metadata.put(key, value);
+    }
+
+    /**
+     * Champ de l'objet {@code aws} d'un sous-segment X-Ray (operation, request_id, retries...).
+     */
+    public void putAws(String key, Object value) {
+        aws.put(key, value);
+    }
+
+    public void markError(Throwable t) {
+        this.error = true;
+        if (t != null) {
+            metadata.put("exception", t.getClass().getSimpleName() + ": " + t.getMessage());
+        }
+    }
+
+    public void markFault() {
+        this.fault = true;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public TraceSpan getParent() {
+        return parent;
+    }
+
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    public long getEndNanos() {
+        return endNanos;
+    }
+
+    public long getDurationNanos() {
+        long end = endNanos;
+        return (end == 0 ? System.nanoTime() : end) - startNanos;
+    }
+
+    public String getNamespace() {
+        return namespace;
+    }
+
+    public void setNamespace(String namespace) {
+        this.namespace = namespace;
+    }
+
+    public Integer getHttpStatus() {
+        return httpStatus;
+    }
+
+    public void setHttpStatus(int httpStatus) {
+        this.httpStatus = httpStatus;
+    }
+
+    public boolean isError() {
+        return error;
+    }
+
+    public boolean isFault() {
+        return fault;
+    }
+
+    public Map<String, Object> getMetadata() {
+        synchronized (metadata) {
+            return new LinkedHashMap<>(metadata);
+        }
+    }
+
+    public Map<String, Object> getAws() {
+        synchronized (aws) {
+            return new LinkedHashMap<>(aws);
+        }
+    }
+
+    public List<TraceSpan> getChildren() {
+        return children;
+    }
+}
@@ -0,0 +1,97 @@
+package com.aws.dodo;
+
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttribute;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.core.interceptor.SdkExecutionAttribute;
+
+/**
+ * Ouvre un sous-segment par appel AWS. L'opération, le request id et les retries vont dans
+ * l'objet {@code aws} du sous-segment, le statut HTTP dans {@code http.response.status} ;
+ * les tentatives et les octets envoyés / reçus restent en métadonnées.
+ */
+@Component
+public class TracingExecutionInterceptor implements ExecutionInterceptor {
+
+    private static final ExecutionAttribute<TraceRecorder.Scope> SCOPE = new ExecutionAttribute<>("TraceScope");
+    private static final ExecutionAttribute<Integer> ATTEMPTS = new ExecutionAttribute<>("TraceAttempts");
+    private static final ExecutionAttribute<Long> BYTES_SENT = new ExecutionAttribute<>("TraceBytesSent");
+    private static final ExecutionAttribute<Long> BYTES_RECEIVED = new ExecutionAttribute<>("TraceBytesReceived");
+
+    private final TraceRecorder traceRecorder;
+
+    public TracingExecutionInterceptor(TraceRecorder traceRecorder) {
+        this.traceRecorder = traceRecorder;
+    }
+
+    @Override
+    public void beforeExecution(Context.BeforeExecution context, ExecutionAttributes executionAttributes) {
+        if (!traceRecorder.isSampled()) {
+            return;
+        }
+        String service = executionAttributes.getAttribute(SdkExecutionAttribute.SERVICE_NAME);
+        String operation = executionAttributes.getAttribute(SdkExecutionAttribute.OPERATION_NAME);
+        TraceRecorder.Scope scope = traceRecorder.startSpan(service);
+        scope.setNamespace("aws");
+        scope.putAws("operation", operation);
+        executionAttributes.putAttribute(SCOPE, scope);
+        executionAttributes.putAttribute(ATTEMPTS, 0);
+        executionAttributes.putAttribute(BYTES_SENT, 0L);
+        executionAttributes.putAttribute(BYTES_RECEIVED, 0L);
+    }
+
+    @Override
+    public void beforeTransmission(Context.BeforeTransmission context, ExecutionAttributes executionAttributes) {
+        if (executionAttributes.getAttribute(SCOPE) == null) {
+            return;
+        }
+        executionAttributes.putAttribute(ATTEMPTS, executionAttributes.getAttribute(ATTEMPTS) + 1);
+        long sent = context.requestBody()
+                .flatMap(body -> body.optionalContentLength())
+                .orElse(0L);
+        executionAttributes.putAttribute(BYTES_SENT, executionAttributes.getAttribute(BYTES_SENT) + sent);
+    }
+
+    @Override
+    public void afterTransmission(Context.AfterTransmission context, ExecutionAttributes executionAttributes) {
+        TraceRecorder.Scope scope = executionAttributes.getAttribute(SCOPE);
+        if (scope == null) {
+            return;
+        }
+        long received = context.httpResponse().firstMatchingHeader("Content-Length")
+                .map(Long::parseLong)
+                .orElse(0L);
+        executionAttributes.putAttribute(BYTES_RECEIVED, executionAttributes.getAttribute(BYTES_RECEIVED) + received);
+        scope.setHttpStatus(context.httpResponse().statusCode());
+        context.httpResponse().firstMatchingHeader("x-amzn-RequestId")
+                .ifPresent(awsRequestId -> scope.putAws("request_id", awsRequestId));
+    }
+
+    @Override
+    public void afterExecution(Context.AfterExecution context, ExecutionAttributes executionAttributes) {
+        close(executionAttributes, null);
+    }
+
+    @Override
+    public void onExecutionFailure(Context.FailedExecution context, ExecutionAttributes executionAttributes) {
+        close(executionAttributes, context.exception());
+    }
+
+    private void close(ExecutionAttributes executionAttributes, Throwable failure) {
+        TraceRecorder.Scope scope = executionAttributes.getAttribute(SCOPE);
+        if (scope == null) {
+            return;
+        }
+        int attempts = executionAttributes.getAttribute(ATTEMPTS);
+        scope.put("attempts", attempts);
+        scope.putAws("retries", Math.max(0, attempts - 1));
+        scope.put("bytesSent", executionAttributes.getAttribute(BYTES_SENT));
+        scope.put("bytesReceived", executionAttributes.getAttribute(BYTES_RECEIVED));
+        if (failure != null) {
+            scope.markError(failure);
+        }
+        scope.close();
+    }
+}
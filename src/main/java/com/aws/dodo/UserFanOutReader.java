@@ -0,0 +1,105 @@
+package com.aws.dodo;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Exécute des lectures unitaires en parallèle sur des threads virtuels, au plus
+ * {@code users.fan-out.max-concurrency} simultanément, jusqu'à la deadline de l'invocation.
+ * Les résultats sont retournés dans l'ordre des ids demandés ; un id en erreur ou non résolu
+ * avant la deadline est retourné en FAILED sans affecter les autres.
+ */
+@Component
+public class UserFanOutReader {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserFanOutReader.class);
+    static final String DEADLINE_EXCEEDED = "Délai d'exécution dépassé";
+
+    private final TraceRecorder traceRecorder;
+    private final DeadlineGuard deadlineGuard;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final int maxConcurrency;
+
+    public UserFanOutReader(TraceRecorder traceRecorder, DeadlineGuard deadlineGuard,
+                            @Value("${users.fan-out.max-concurrency:16}") int maxConcurrency) {
+        this.traceRecorder = traceRecorder;
+        this.deadlineGuard = deadlineGuard;
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    public List<UserLookupResult> read(Collection<String> userIds, Function<String, Optional<User>> reader) {
+        Semaphore permits = new Semaphore(maxConcurrency);
+        CompletionService<UserLookupResult> completion = new ExecutorCompletionService<>(executor);
+        Map<Future<UserLookupResult>, String> idsByFuture = new HashMap<>();
+        for (String userId : userIds) {
+            idsByFuture.put(completion.submit(deadlineGuard.propagate(traceRecorder.propagate(
+                    () -> lookup(userId, reader, permits)))), userId);
+        }
+
+        Map<String, UserLookupResult> completed = new LinkedHashMap<>();
+        try {
+            while (completed.size() < idsByFuture.size()) {
+                long budget = deadlineGuard.remainingBudgetMillis();
+                Future<UserLookupResult> done = budget > 0 ? completion.poll(budget, TimeUnit.MILLISECONDS) : null;
+                if (done == null) {
+                    break;
+                }
+                String userId = idsByFuture.get(done);
+                try {
+                    completed.put(userId, done.get());
+                } catch (ExecutionException e) {
+                    logger.warn("Lecture de l'utilisateur {} échouée : {}", userId, e.getCause().getMessage());
+                    completed.put(userId, UserLookupResult.failed(userId, e.getCause().getMessage()));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        idsByFuture.keySet().forEach(future -> future.cancel(true));
+
+        List<UserLookupResult> results = new ArrayList<>();
+        for (String userId : userIds) {
+            UserLookupResult result = completed.get(userId);
+            results.add(result != null ? result : UserLookupResult.failed(userId, DEADLINE_EXCEEDED));
+        }
+        return results;
+    }
+
+    private static UserLookupResult lookup(String userId, Function<String, Optional<User>> reader, Semaphore permits) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return UserLookupResult.failed(userId, "Lecture annulée");
+        }
+        try {
+            return reader.apply(userId)
+                    .map(UserLookupResult::found)
+                    .orElseGet(() -> UserLookupResult.notFound(userId));
+        } catch (Exception e) {
+            logger.warn("Lecture de l'utilisateur {} échouée : {}", userId, e.getMessage());
+            return UserLookupResult.failed(userId, e.getMessage());
+        } finally {
+            permits.release();
+        }
+    }
+}
@@ -10,23 +10,30 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.SpringApplication;
 import org.springframework.context.ConfigurableApplicationContext;
-import org.springframework.stereotype.Component;
+import software.amazon.awssdk.core.exception.ApiCallTimeoutException;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
-@Component
 public class UserLambdaHandler implements RequestHandler<Map<String, Object>, Map<String, Object>> {
 
     private static final Logger logger = LoggerFactory.getLogger(UserLambdaHandler.class);
     private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final int MAX_IDS_PER_REQUEST = 100;
     private static final ConfigurableApplicationContext applicationContext;
     private static final UserService userService;
+    private static final TraceRecorder traceRecorder;
+    private static final DeadlineGuard deadlineGuard;
 
     static {
         applicationContext = SpringApplication.run(FirstLambdaApplication.class);
         userService = applicationContext.getBean(UserService.class);
+        traceRecorder = applicationContext.getBean(TraceRecorder.class);
+        deadlineGuard = applicationContext.getBean(DeadlineGuard.class);
     }
 
     @Override
@@ -35,23 +42,52 @@ public class UserLambdaHandler implements RequestHandler<Map<String, Object>, Ma
         logger.info("Liste des champs du JSON : {}", input.keySet());
         logger.info("Liste des valeurs du JSON : {}", input.values());
 
+        traceRecorder.beginTrace(context.getAwsRequestId());
+        deadlineGuard.begin(context.getRemainingTimeInMillis());
         try {
-            CreateUserRequestDto request = objectMapper.convertValue(input, CreateUserRequestDto.class);
+            CreateUserRequestDto request;
+            try (TraceRecorder.Scope ignored = traceRecorder.startSpan("bind-request")) {
+                request = objectMapper.convertValue(input, CreateUserRequestDto.class);
+            }
             Optional<UserDto> body = Optional.ofNullable(request.body());
-
-            return routeRequest(request.httpMethod(), request.path(), body, context);
+            traceRecorder.annotateRoot("httpMethod", request.httpMethod());
+            traceRecorder.annotateRoot("path", request.path());
+
+            deadlineGuard.checkpoint("route");
+            Map<String, Object> response = routeRequest(request.httpMethod(), request.path(),
+                    request.queryStringParameters(), body, context);
+            traceRecorder.annotateRoot("statusCode", response.get("statusCode"));
+            return response;
+        } catch (DeadlineExceededException e) {
+            return deadlineExceeded(e.getStage(), e);
+        } catch (ApiCallTimeoutException e) {
+            return deadlineExceeded("sdk-call", e);
         } catch (Exception e) {
             logger.error("Erreur lors du traitement", e);
+            traceRecorder.annotateRoot("statusCode", 500);
             return errorResponse(500, "Erreur interne du serveur");
+        } finally {
+            deadlineGuard.end();
+            traceRecorder.endTrace();
         }
     }
 
-    private Map<String, Object> routeRequest(String method, String path, Optional<UserDto> body, Context context) {
+    private Map<String, Object> deadlineExceeded(String stage, Exception e) {
+        logger.warn("Délai d'exécution dépassé - étape: {} - {}", stage, e.getMessage());
+        deadlineGuard.recordDeadlineExceeded(stage);
+        traceRecorder.annotateRoot("statusCode", 503);
+        return errorResponse(503, "Service temporairement indisponible");
+    }
+
+    private Map<String, Object> routeRequest(String method, String path, Map<String, String> queryParameters,
+                                             Optional<UserDto> body, Context context) {
         String[] pathParts = path.split("/");
 
         return switch (method) {
             case "POST" -> body.map(userBody -> createUser(userBody, context.getAwsRequestId())).orElseGet(() -> errorResponse(400, "Body manquant"));
-            case "GET" -> getUser(pathParts[2], context.getAwsRequestId());
+            case "GET" -> pathParts.length > 2
+                    ? getUser(pathParts[2], context.getAwsRequestId())
+                    : getUsers(queryParameters, context.getAwsRequestId());
             case "PUT" -> body.map(userBody ->  updateUser(userBody, context.getAwsRequestId())).orElseGet(() -> errorResponse(400, "Body manquant"));
             case "DELETE" -> deleteUser(pathParts[2], context.getAwsRequestId());
             default -> errorResponse(404, "Endpoint non trouvé");
@@ -76,6 +112,41 @@ public class UserLambdaHandler implements RequestHandler<Map<String, Object>, Ma
                 .orElseGet(() -> errorResponse(404, "Utilisateur non trouvé"));
     }
 
+    private Map<String, Object> getUsers(Map<String, String> queryParameters, String requestId) {
+        String ids = queryParameters != null ? queryParameters.get("ids") : null;
+        if (ids == null || ids.isBlank()) {
+            return errorResponse(400, "Paramètre ids manquant");
+        }
+        List<String> userIds = Arrays.stream(ids.split(","))
+                .map(String::trim)
+                .filter(id -> !id.isEmpty())
+                .distinct()
+                .toList();
+        if (userIds.size() > MAX_IDS_PER_REQUEST) {
+            return errorResponse(400, "Trop d'ids (maximum " + MAX_IDS_PER_REQUEST + ")");
+        }
+
+        // un RequestHandler renvoie une seule réponse : la réponse partielle est construite
+        // une fois toutes les lectures terminées (ou la deadline atteinte), dans l'ordre des ids
+        List<User> users = new ArrayList<>();
+        List<String> missing = new ArrayList<>();
+        List<Map<String, String>> failed = new ArrayList<>();
+        for (UserLookupResult result : userService.getUsersByIds(userIds, requestId)) {
+            switch (result.status()) {
+                case FOUND -> users.add(result.user());
+                case NOT_FOUND -> missing.add(result.userId());
+                case FAILED -> failed.add(Map.of("userId", result.userId(),
+                        "error", String.valueOf(result.error())));
+            }
+        }
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("users", users);
+        data.put("missing", missing);
+        data.put("failed", failed);
+        return successResponse(200, data);
+    }
+
     private Map<String, Object> updateUser(UserDto userDetails, String requestId) {
         User updatedUser = userService.updateUser(userDetails.userId(), userDetails, requestId);
         return successResponse(200, updatedUser);
@@ -87,10 +158,12 @@ public class UserLambdaHandler implements RequestHandler<Map<String, Object>, Ma
     }
 
     private Map<String, Object> successResponse(int statusCode, Object data) {
-        Map<String, Object> response = new HashMap<>();
-        response.put("statusCode", statusCode);
-        response.put("body", data != null ? objectMapper.convertValue(data, Map.class) : null);
-        return response;
+        try (TraceRecorder.Scope ignored = traceRecorder.startSpan("bind-response")) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("statusCode", statusCode);
+            response.put("body", data != null ? objectMapper.convertValue(data, Map.class) : null);
+            return response;
+        }
     }
 
     private Map<String, Object> errorResponse(int statusCode, String message) {
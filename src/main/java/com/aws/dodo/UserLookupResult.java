@@ -0,0 +1,22 @@
+package com.aws.dodo;
+
+public record UserLookupResult(String userId, Status status, User user, String error) {
+
+    public enum Status {
+        FOUND,
+        NOT_FOUND,
+        FAILED
+    }
+
+    public static UserLookupResult found(User user) {
+        return new UserLookupResult(user.getUserId(), Status.FOUND, user, null);
+    }
+
+    public static UserLookupResult notFound(String userId) {
+        return new UserLookupResult(userId, Status.NOT_FOUND, null, null);
+    }
+
+    public static UserLookupResult failed(String userId, String error) {
+        return new UserLookupResult(userId, Status.FAILED, null, error);
+    }
+}
@@ -1,12 +1,30 @@
 package com.aws.dodo;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Repository;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.enhanced.dynamodb.TableMetadata;
 import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.Delete;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.Put;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsRequest;
+import software.amazon.awssdk.services.dynamodb.model.Update;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Repository
@@ -14,34 +32,48 @@ public class UserRepository {
 
     private final CloudWatchLogService cloudWatchLogService;
     private static final String TABLE_NAME = "User";
+    private static final String OUTBOX_TABLE_NAME = "UserOutbox";
+    private static final TableSchema<User> USER_SCHEMA = TableSchema.fromBean(User.class);
+    private static final TableSchema<OutboxEvent> OUTBOX_SCHEMA = TableSchema.fromBean(OutboxEvent.class);
     private static final Logger logger = LoggerFactory.getLogger(UserRepository.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
 
+    private final TraceRecorder traceRecorder;
+    private final DeadlineGuard deadlineGuard;
+    private final DynamoDbClient dynamoDbClient;
     private final DynamoDbTable<User> usersTable;
+    private final DynamoDbTable<OutboxEvent> outboxTable;
 
-    public UserRepository(DynamoDbEnhancedClient dynamoDbEnhancedClient, CloudWatchLogService cloudWatchLogService) {
+    public UserRepository(DynamoDbEnhancedClient dynamoDbEnhancedClient, DynamoDbClient dynamoDbClient,
+                          CloudWatchLogService cloudWatchLogService, TraceRecorder traceRecorder,
+                          DeadlineGuard deadlineGuard) {
         this.cloudWatchLogService = cloudWatchLogService;
-        this.usersTable = dynamoDbEnhancedClient.table(TABLE_NAME, TableSchema.fromBean(User.class));
+        this.traceRecorder = traceRecorder;
+        this.deadlineGuard = deadlineGuard;
+        this.dynamoDbClient = dynamoDbClient;
+        this.usersTable = dynamoDbEnhancedClient.table(TABLE_NAME, USER_SCHEMA);
+        this.outboxTable = dynamoDbEnhancedClient.table(OUTBOX_TABLE_NAME, OUTBOX_SCHEMA);
     }
 
     public User save(User user, String requestId) {
         long startTime = System.currentTimeMillis();
         logger.info("Saving user with ID: {}", user.getUserId());
-        try {
-            usersTable.putItem(user);
+        try (TraceRecorder.Scope ignored = traceRecorder.startSpan("UserRepository.save")) {
+            writeWithOutbox(putUser(user), new OutboxEvent(user.getUserId(), OutboxEvent.USER_CREATED, toJson(user)));
             long duration = System.currentTimeMillis() - startTime;
-            cloudWatchLogService.logDynamoDBOperation("PutItem", TABLE_NAME, user.getUserId(), true, duration);
+            cloudWatchLogService.logDynamoDBOperation("TransactWriteItems", TABLE_NAME, user.getUserId(), true, duration);
             return user;
         } catch (Exception e) {
             long duration = System.currentTimeMillis() - startTime;
-            cloudWatchLogService.logDynamoDBOperation("PutItem", TABLE_NAME, user.getUserId(), false, duration);
+            cloudWatchLogService.logDynamoDBOperation("TransactWriteItems", TABLE_NAME, user.getUserId(), false, duration);
             throw e;
         }
     }
 
     public Optional<User> findById(String userId, String requestId) {
         long startTime = System.currentTimeMillis();
-        try {
-            User user = usersTable.getItem(r -> r.key(k -> k.partitionValue(userId)));
+        try (TraceRecorder.Scope ignored = traceRecorder.startSpan("UserRepository.findById")) {
+            User user = getItem(userId);
             long duration = System.currentTimeMillis() - startTime;
             cloudWatchLogService.logDynamoDBOperation("GetItem", TABLE_NAME, userId, user != null, duration);
             return Optional.ofNullable(user);
@@ -52,29 +84,138 @@ public class UserRepository {
         }
     }
 
+    /**
+     * Lecture sans enregistrement CloudWatch par item, pour le fan-out de GET /users?ids=.
+     */
+    public Optional<User> fetchById(String userId) {
+        try (TraceRecorder.Scope ignored = traceRecorder.startSpan("UserRepository.fetchById")) {
+            return Optional.ofNullable(getItem(userId));
+        }
+    }
+
     public void delete(String userId, String requestId) {
         long startTime = System.currentTimeMillis();
-        try {
-            usersTable.deleteItem(r -> r.key(k -> k.partitionValue(userId)));
+        try (TraceRecorder.Scope ignored = traceRecorder.startSpan("UserRepository.delete")) {
+            writeWithOutbox(deleteUser(userId),
+                    new OutboxEvent(userId, OutboxEvent.USER_DELETED, toJson(Map.of("userId", userId))));
             long duration = System.currentTimeMillis() - startTime;
-            cloudWatchLogService.logDynamoDBOperation("DeleteItem", TABLE_NAME, userId, true, duration);
+            cloudWatchLogService.logDynamoDBOperation("TransactWriteItems", TABLE_NAME, userId, true, duration);
         } catch (Exception e) {
             long duration = System.currentTimeMillis() - startTime;
-            cloudWatchLogService.logDynamoDBOperation("DeleteItem", TABLE_NAME, userId, false, duration);
+            cloudWatchLogService.logDynamoDBOperation("TransactWriteItems", TABLE_NAME, userId, false, duration);
             throw e;
         }
     }
 
     public void update(User user, String requestId) {
         long startTime = System.currentTimeMillis();
-        try {
-            usersTable.updateItem(user);
+        try (TraceRecorder.Scope ignored = traceRecorder.startSpan("UserRepository.update")) {
+            writeWithOutbox(updateUser(user), new OutboxEvent(user.getUserId(), OutboxEvent.USER_UPDATED, toJson(user)));
             long duration = System.currentTimeMillis() - startTime;
-            cloudWatchLogService.logDynamoDBOperation("UpdateItem", TABLE_NAME, user.getUserId(), true, duration);
+            cloudWatchLogService.logDynamoDBOperation("TransactWriteItems", TABLE_NAME, user.getUserId(), true, duration);
         } catch (Exception e) {
             long duration = System.currentTimeMillis() - startTime;
-            cloudWatchLogService.logDynamoDBOperation("UpdateItem", TABLE_NAME, user.getUserId(), false, duration);
+            cloudWatchLogService.logDynamoDBOperation("TransactWriteItems", TABLE_NAME, user.getUserId(), false, duration);
             throw e;
         }
     }
+
+    // GetItemEnhancedRequest n'expose pas d'overrideConfiguration : lecture via le client bas niveau
+    // pour porter l'apiCallTimeout, le mapping restant celui du schéma User
+    private User getItem(String userId) {
+        Duration timeout = deadlineGuard.apiCallTimeout("GetItem");
+        GetItemResponse response = dynamoDbClient.getItem(GetItemRequest.builder()
+                .tableName(TABLE_NAME)
+                .key(keyMap(Key.builder().partitionValue(userId).build()))
+                .overrideConfiguration(o -> o.apiCallTimeout(timeout))
+                .build());
+        return response.hasItem() ? USER_SCHEMA.mapToItem(response.item()) : null;
+    }
+
+    // TransactWriteItemsEnhancedRequest n'expose pas d'overrideConfiguration : la transaction passe par
+    // le client bas niveau pour porter l'apiCallTimeout, les items étant construits depuis les schémas
+    private void writeWithOutbox(TransactWriteItem userWrite, OutboxEvent event) {
+        TransactWriteItem outboxWrite = TransactWriteItem.builder()
+                .put(Put.builder()
+                        .tableName(outboxTable.tableName())
+                        .item(OUTBOX_SCHEMA.itemToMap(event, true))
+                        .build())
+                .build();
+        Duration timeout = deadlineGuard.apiCallTimeout("TransactWriteItems");
+        dynamoDbClient.transactWriteItems(TransactWriteItemsRequest.builder()
+                .transactItems(userWrite, outboxWrite)
+                .overrideConfiguration(o -> o.apiCallTimeout(timeout))
+                .build());
+    }
+
+    private TransactWriteItem putUser(User user) {
+        return TransactWriteItem.builder()
+                .put(Put.builder()
+                        .tableName(usersTable.tableName())
+                        .item(USER_SCHEMA.itemToMap(user, true))
+                        .build())
+                .build();
+    }
+
+    // même sémantique que updateItem : les attributs renseignés sont écrits, les attributs null supprimés
+    private TransactWriteItem updateUser(User user) {
+        Map<String, AttributeValue> key = keyMap(usersTable.keyFrom(user));
+        Map<String, AttributeValue> values = USER_SCHEMA.itemToMap(user, true);
+        List<String> sets = new ArrayList<>();
+        List<String> removes = new ArrayList<>();
+        Map<String, String> names = new HashMap<>();
+        Map<String, AttributeValue> expressionValues = new HashMap<>();
+        for (String attribute : USER_SCHEMA.attributeNames()) {
+            if (key.containsKey(attribute)) {
+                continue;
+            }
+            String name = "#a" + names.size();
+            names.put(name, attribute);
+            if (values.containsKey(attribute)) {
+                String value = ":v" + expressionValues.size();
+                expressionValues.put(value, values.get(attribute));
+                sets.add(name + " = " + value);
+            } else {
+                removes.add(name);
+            }
+        }
+        StringBuilder expression = new StringBuilder();
+        if (!sets.isEmpty()) {
+            expression.append("SET ").append(String.join(", ", sets));
+        }
+        if (!removes.isEmpty()) {
+            expression.append(expression.isEmpty() ? "" : " ").append("REMOVE ").append(String.join(", ", removes));
+        }
+
+        Update.Builder update = Update.builder()
+                .tableName(usersTable.tableName())
+                .key(key)
+                .updateExpression(expression.toString())
+                .expressionAttributeNames(names);
+        if (!expressionValues.isEmpty()) {
+            update.expressionAttributeValues(expressionValues);
+        }
+        return TransactWriteItem.builder().update(update.build()).build();
+    }
+
+    private TransactWriteItem deleteUser(String userId) {
+        return TransactWriteItem.builder()
+                .delete(Delete.builder()
+                        .tableName(usersTable.tableName())
+                        .key(keyMap(Key.builder().partitionValue(userId).build()))
+                        .build())
+                .build();
+    }
+
+    private static Map<String, AttributeValue> keyMap(Key key) {
+        return key.keyMap(USER_SCHEMA, TableMetadata.primaryIndexName());
+    }
+
+    private static String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException(e);
+        }
+    }
 }
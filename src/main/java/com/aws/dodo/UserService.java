@@ -1,19 +1,15 @@
 package com.aws.dodo;
 
 import com.aws.dodo.dto.UserDto;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.jspecify.annotations.NonNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
-import software.amazon.awssdk.regions.Region;
-import software.amazon.awssdk.services.sns.SnsClient;
-import software.amazon.awssdk.services.sns.model.PublishRequest;
-import software.amazon.awssdk.services.sns.model.PublishResponse;
-import software.amazon.awssdk.services.sns.model.SnsException;
 
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class UserService {
@@ -21,11 +17,15 @@ public class UserService {
     private static final Logger logger = LoggerFactory.getLogger(UserService.class);
     private final UserRepository userRepository;
     private final CloudWatchLogService cloudWatchLogService;
-    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private final TraceRecorder traceRecorder;
+    private final UserFanOutReader userFanOutReader;
 
-    public UserService(UserRepository userRepository, CloudWatchLogService cloudWatchLogService) {
+    public UserService(UserRepository userRepository, CloudWatchLogService cloudWatchLogService,
+                       TraceRecorder traceRecorder, UserFanOutReader userFanOutReader) {
         this.userRepository = userRepository;
         this.cloudWatchLogService = cloudWatchLogService;
+        this.traceRecorder = traceRecorder;
+        this.userFanOutReader = userFanOutReader;
     }
 
     public User createUser(UserDto userDto, String requestId) {
@@ -33,40 +33,16 @@ public class UserService {
         logger.info("Creating user with name: {} and email: {}", userDto.name(), userDto.email());
         cloudWatchLogService.logOperationStart("CREATE_USER", "NEW", requestId);
 
-        try {
+        try (TraceRecorder.Scope ignored = traceRecorder.startSpan("UserService.createUser")) {
             User user = userDto.toEntity();
+            // l'événement USER_CREATED part dans la même transaction (outbox), relayé hors requête
             User createdUser = userRepository.save(user, requestId);
-
-            SnsClient snsClient = SnsClient.builder()
-                    .region(Region.EU_WEST_3)
-                    .build();
-            String message = objectMapper.writeValueAsString(createdUser);
-            logger.info("envoi du message dans SQS : {}", message);
-            pubTopic(snsClient, message, "arn:aws:sns:eu-west-3:225578988341:userTopic");
-            snsClient.close();
             long duration = System.currentTimeMillis() - startTime;
             cloudWatchLogService.logOperationSuccess("CREATE_USER", createdUser.getUserId(), requestId, duration);
             return createdUser;
-        } catch (JsonProcessingException e) {
+        } catch (Exception e) {
             cloudWatchLogService.logOperationError("CREATE_USER", "UNKNOWN", requestId, e);
-            throw new RuntimeException(e);
-        }
-    }
-
-    public static void pubTopic(SnsClient snsClient, String message, String topicArn) {
-
-        try {
-            PublishRequest request = PublishRequest.builder()
-                    .message(message)
-                    .topicArn(topicArn)
-                    .build();
-
-            PublishResponse result = snsClient.publish(request);
-            System.out.println(result.messageId() + " Message sent. Status is " + result.sdkHttpResponse().statusCode());
-
-        } catch (SnsException e) {
-            System.err.println(e.awsErrorDetails().errorMessage());
-            System.exit(1);
+            throw e;
         }
     }
 
@@ -74,7 +50,7 @@ public class UserService {
         long startTime = System.currentTimeMillis();
         cloudWatchLogService.logOperationStart("GET_USER", userId, requestId);
 
-        try {
+        try (TraceRecorder.Scope ignored = traceRecorder.startSpan("UserService.getUserById")) {
             Optional<User> user = userRepository.findById(userId, requestId);
             long duration = System.currentTimeMillis() - startTime;
             cloudWatchLogService.logOperationSuccess("GET_USER", userId, requestId, duration);
@@ -85,11 +61,34 @@ public class UserService {
         }
     }
 
+    /**
+     * Lit plusieurs utilisateurs en parallèle (voir {@link UserFanOutReader}), dans l'ordre des ids demandés.
+     * Les lectures unitaires ne journalisent pas dans CloudWatch : les enregistrements GET_USERS de début
+     * et de fin couvrent l'opération.
+     */
+    public List<UserLookupResult> getUsersByIds(List<String> userIds, String requestId) {
+        long startTime = System.currentTimeMillis();
+        Set<String> requested = new LinkedHashSet<>(userIds);
+        cloudWatchLogService.logBatchOperationStart("GET_USERS", requested.size(), requestId);
+
+        try (TraceRecorder.Scope ignored = traceRecorder.startSpan("UserService.getUsersByIds")) {
+            List<UserLookupResult> results = userFanOutReader.read(requested, userRepository::fetchById);
+            long completed = results.stream()
+                    .filter(result -> !UserFanOutReader.DEADLINE_EXCEEDED.equals(result.error()))
+                    .count();
+
+            long duration = System.currentTimeMillis() - startTime;
+            cloudWatchLogService.logBatchOperationSuccess("GET_USERS", results.size(), (int) completed,
+                    requestId, duration);
+            return results;
+        }
+    }
+
     public User updateUser(@NonNull String userId, UserDto userDto, String requestId) {
         long startTime = System.currentTimeMillis();
         cloudWatchLogService.logOperationStart("UPDATE_USER", userId, requestId);
 
-        try {
+        try (TraceRecorder.Scope ignored = traceRecorder.startSpan("UserService.updateUser")) {
             User userDetails = userDto.toEntity();
             return userRepository.findById(userId, requestId)
                     .map(user -> {
@@ -115,7 +114,7 @@ public class UserService {
         long startTime = System.currentTimeMillis();
         cloudWatchLogService.logOperationStart("DELETE_USER", userId, requestId);
 
-        try {
+        try (TraceRecorder.Scope ignored = traceRecorder.startSpan("UserService.deleteUser")) {
             userRepository.delete(userId, requestId);
             long duration = System.currentTimeMillis() - startTime;
             cloudWatchLogService.logOperationSuccess("DELETE_USER", userId, requestId, duration);
@@ -0,0 +1,105 @@
+package com.aws.dodo;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DeadlineGuardTest {
+
+	private final DeadlineGuard guard = new DeadlineGuard(500, 1500);
+
+	@AfterEach
+	void clearDeadline() {
+		guard.end();
+	}
+
+	@Test
+	void noDeadlineMeansNoTimeout() {
+		assertNull(guard.apiCallTimeout("GetItem"));
+		assertNull(guard.nonEssentialApiCallTimeout("PutLogEvents"));
+		assertTrue(guard.allowsNonEssentialWork());
+	}
+
+	@Test
+	void apiCallTimeoutIsRemainingTimeMinusSafetyMargin() {
+		guard.begin(10_000);
+
+		Duration timeout = guard.apiCallTimeout("GetItem");
+
+		assertTrue(timeout.toMillis() <= 9_500 && timeout.toMillis() > 9_000, timeout.toString());
+	}
+
+	@Test
+	void apiCallTimeoutThrowsOnceTheMarginIsReached() {
+		guard.begin(400);
+
+		DeadlineExceededException e = assertThrows(DeadlineExceededException.class, () -> guard.apiCallTimeout("GetItem"));
+		assertEquals("GetItem", e.getStage());
+	}
+
+	@Test
+	void nonEssentialCallsOnlyGetTheSpareBudget() {
+		guard.begin(10_000);
+
+		Duration timeout = guard.nonEssentialApiCallTimeout("PutLogEvents");
+
+		assertTrue(timeout.toMillis() <= 8_000 && timeout.toMillis() > 7_500, timeout.toString());
+		assertTrue(guard.allowsNonEssentialWork());
+	}
+
+	@Test
+	void nonEssentialWorkIsRefusedWhenTheBudgetIsLow() {
+		guard.begin(1_500);
+
+		assertFalse(guard.allowsNonEssentialWork());
+		assertThrows(DeadlineExceededException.class, () -> guard.nonEssentialApiCallTimeout("PutLogEvents"));
+		assertTrue(guard.apiCallTimeout("GetItem").toMillis() > 0);
+	}
+
+	@Test
+	void propagateCarriesTheDeadlineToAnotherThreadAndCleansUp() throws Exception {
+		guard.begin(400);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			long propagated = executor.submit(guard.propagate(guard::remainingBudgetMillis)).get();
+			long afterwards = executor.submit(guard::remainingBudgetMillis).get();
+
+			assertTrue(propagated <= 0, String.valueOf(propagated));
+			assertEquals(Long.MAX_VALUE, afterwards);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void deadlineExceededMetricIsValidEmbeddedMetricFormat() throws Exception {
+		String stage = "sdk\"call";
+
+		JsonNode metric = new ObjectMapper().readTree(
+				new ObjectMapper().writeValueAsString(guard.deadlineExceededMetric(stage)));
+
+		assertEquals(stage, metric.get("Stage").asText());
+		assertEquals(1, metric.get("DeadlineExceeded").asInt());
+		assertEquals("DeadlineExceeded", metric.at("/_aws/CloudWatchMetrics/0/Metrics/0/Name").asText());
+		assertEquals("Stage", metric.at("/_aws/CloudWatchMetrics/0/Dimensions/0/0").asText());
+	}
+
+	@Test
+	void recordDeadlineExceededCountsEvents() {
+		guard.recordDeadlineExceeded("route");
+		guard.recordDeadlineExceeded("GetItem");
+
+		assertEquals(2, guard.getDeadlineExceededCount());
+	}
+}
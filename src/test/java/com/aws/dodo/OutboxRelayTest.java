@@ -0,0 +1,113 @@
+package com.aws.dodo;
+
+import com.amazonaws.services.lambda.runtime.events.DynamodbEvent;
+import com.amazonaws.services.lambda.runtime.events.StreamsEventResponse;
+import com.amazonaws.services.lambda.runtime.events.models.dynamodb.AttributeValue;
+import com.amazonaws.services.lambda.runtime.events.models.dynamodb.StreamRecord;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OutboxRelayTest {
+
+	private final List<List<String>> batches = new ArrayList<>();
+
+	private OutboxPublisher failing(Set<String> failedEventIds) {
+		return events -> {
+			batches.add(events.stream().map(OutboxEvent::getEventId).toList());
+			return events.stream().map(OutboxEvent::getEventId).filter(failedEventIds::contains).toList();
+		};
+	}
+
+	private static OutboxEvent event(String userId, String eventId) {
+		OutboxEvent event = new OutboxEvent();
+		event.setUserId(userId);
+		event.setEventId(eventId);
+		event.setEventType(OutboxEvent.USER_UPDATED);
+		event.setPayload("{}");
+		return event;
+	}
+
+	@Test
+	void splitsBatchesAtTenAcrossUsers() {
+		List<OutboxEvent> events = new ArrayList<>();
+		for (int i = 0; i < 25; i++) {
+			events.add(event("user-" + i, "e" + i));
+		}
+
+		List<String> failures = new OutboxRelay(failing(Set.of())).drain(events);
+
+		assertTrue(failures.isEmpty());
+		assertEquals(List.of(10, 10, 5), batches.stream().map(List::size).toList());
+	}
+
+	@Test
+	void neverPutsTwoEventsOfTheSameUserInOneBatch() {
+		List<OutboxEvent> events = List.of(event("a", "a1"), event("a", "a2"), event("b", "b1"), event("a", "a3"));
+
+		new OutboxRelay(failing(Set.of())).drain(events);
+
+		assertEquals(List.of(List.of("a1", "b1"), List.of("a2"), List.of("a3")), batches);
+	}
+
+	@Test
+	void stopsAUserOnItsFirstFailure() {
+		List<OutboxEvent> events = List.of(event("a", "a1"), event("a", "a2"), event("a", "a3"),
+				event("b", "b1"), event("b", "b2"));
+
+		List<String> failures = new OutboxRelay(failing(Set.of("a2"))).drain(events);
+
+		assertEquals(List.of("a2"), failures);
+		assertEquals(List.of(List.of("a1", "b1"), List.of("a2", "b2")), batches);
+	}
+
+	@Test
+	void reportsPublisherExceptionsAsFailures() {
+		OutboxPublisher broken = events -> {
+			throw new IllegalStateException("SNS indisponible");
+		};
+
+		List<String> failures = new OutboxRelay(broken).drain(List.of(event("a", "a1"), event("a", "a2"), event("b", "b1")));
+
+		assertEquals(List.of("a1", "b1"), failures);
+	}
+
+	@Test
+	void mapsFailuresToStreamSequenceNumbers() {
+		DynamodbEvent streamEvent = new DynamodbEvent();
+		streamEvent.setRecords(List.of(
+				record("INSERT", "100", "a", "a1"),
+				record("MODIFY", "101", "a", "a1"),
+				record("INSERT", "102", "b", "b1"),
+				record("INSERT", "103", "b", "b2")));
+
+		StreamsEventResponse response = new OutboxRelay(failing(Set.of("b1"))).relay(streamEvent);
+
+		assertEquals(List.of("102"), response.getBatchItemFailures().stream()
+				.map(StreamsEventResponse.BatchItemFailure::getItemIdentifier)
+				.toList());
+		assertEquals(List.of(List.of("a1", "b1")), batches);
+	}
+
+	private static DynamodbEvent.DynamodbStreamRecord record(String eventName, String sequenceNumber,
+															 String userId, String eventId) {
+		StreamRecord streamRecord = new StreamRecord();
+		streamRecord.setSequenceNumber(sequenceNumber);
+		streamRecord.setNewImage(Map.of(
+				"userId", new AttributeValue().withS(userId),
+				"eventId", new AttributeValue().withS(eventId),
+				"eventType", new AttributeValue().withS(OutboxEvent.USER_CREATED),
+				"payload", new AttributeValue().withS("{}")));
+
+		DynamodbEvent.DynamodbStreamRecord record = new DynamodbEvent.DynamodbStreamRecord();
+		record.setEventName(eventName);
+		record.setDynamodb(streamRecord);
+		return record;
+	}
+}
@@ -0,0 +1,113 @@
+package com.aws.dodo;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TraceRecorderTest {
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+	private PrintStream originalOut;
+
+	@BeforeEach
+	void captureStdout() {
+		originalOut = System.out;
+		System.setOut(new PrintStream(stdout, true, StandardCharsets.UTF_8));
+	}
+
+	@AfterEach
+	void restoreStdout() {
+		System.setOut(originalOut);
+	}
+
+	private static TraceRecorder recorder(double samplingRate) {
+		return new TraceRecorder("users", samplingRate, "stdout", "127.0.0.1:2000");
+	}
+
+	private JsonNode emittedSegment() throws Exception {
+		return objectMapper.readTree(stdout.toString(StandardCharsets.UTF_8).trim());
+	}
+
+	@Test
+	void samplingRateZeroRecordsNothing() {
+		TraceRecorder recorder = recorder(0.0);
+
+		recorder.beginTrace("req-1");
+		try (TraceRecorder.Scope scope = recorder.startSpan("work")) {
+			scope.put("key", "value");
+		}
+		assertFalse(recorder.isSampled());
+		recorder.endTrace();
+
+		assertEquals("", stdout.toString(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	void samplingRateOneAlwaysSamples() {
+		TraceRecorder recorder = recorder(1.0);
+
+		for (int i = 0; i < 20; i++) {
+			recorder.beginTrace("req-" + i);
+			assertTrue(recorder.isSampled());
+			recorder.endTrace();
+			assertFalse(recorder.isSampled());
+		}
+	}
+
+	@Test
+	void emitsXRaySegmentDocument() throws Exception {
+		TraceRecorder recorder = recorder(1.0);
+
+		recorder.beginTrace("req-1");
+		try (TraceRecorder.Scope scope = recorder.startSpan("DynamoDb")) {
+			scope.setNamespace("aws");
+			scope.putAws("operation", "GetItem");
+			scope.putAws("request_id", "ABC123");
+			scope.putAws("retries", 1);
+			scope.setHttpStatus(200);
+			scope.put("bytesSent", 42L);
+		}
+		recorder.endTrace();
+
+		JsonNode segment = emittedSegment();
+		assertEquals("users", segment.get("name").asText());
+		assertTrue(segment.get("trace_id").asText().matches("1-[0-9a-f]{8}-[0-9a-f]{24}"));
+		assertTrue(segment.get("id").asText().matches("[0-9a-f]{16}"));
+		assertEquals("req-1", segment.get("annotations").get("awsRequestId").asText());
+		assertTrue(segment.get("end_time").asDouble() >= segment.get("start_time").asDouble());
+
+		JsonNode subsegment = segment.get("subsegments").get(0);
+		assertEquals("DynamoDb", subsegment.get("name").asText());
+		assertEquals("aws", subsegment.get("namespace").asText());
+		assertEquals("GetItem", subsegment.get("aws").get("operation").asText());
+		assertEquals("ABC123", subsegment.get("aws").get("request_id").asText());
+		assertEquals(1, subsegment.get("aws").get("retries").asInt());
+		assertEquals(200, subsegment.get("http").get("response").get("status").asInt());
+		assertEquals(42L, subsegment.get("metadata").get("default").get("bytesSent").asLong());
+		assertFalse(subsegment.has("in_progress"));
+	}
+
+	@Test
+	void spanStillOpenAtExportIsInProgress() throws Exception {
+		TraceRecorder recorder = recorder(1.0);
+
+		recorder.beginTrace("req-1");
+		recorder.startSpan("late-worker");
+		recorder.endTrace();
+
+		JsonNode subsegment = emittedSegment().get("subsegments").get(0);
+		assertTrue(subsegment.get("in_progress").asBoolean());
+		assertFalse(subsegment.has("end_time"));
+	}
+}
@@ -0,0 +1,115 @@
+package com.aws.dodo;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UserFanOutReaderTest {
+
+	private final TraceRecorder traceRecorder = new TraceRecorder("test", 0.0, "stdout", "127.0.0.1:2000");
+	private final DeadlineGuard deadlineGuard = new DeadlineGuard(500, 1500);
+
+	@AfterEach
+	void clearDeadline() {
+		deadlineGuard.end();
+	}
+
+	private UserFanOutReader reader(int maxConcurrency) {
+		return new UserFanOutReader(traceRecorder, deadlineGuard, maxConcurrency);
+	}
+
+	private static User user(String userId) {
+		return new User(userId, "name-" + userId, null, null, 1L, 1L);
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("interrompu");
+		}
+	}
+
+	@Test
+	void returnsResultsInRequestOrder() {
+		Map<String, Long> delays = Map.of("a", 150L, "b", 75L, "c", 0L);
+
+		List<UserLookupResult> results = reader(16).read(List.of("a", "b", "c"), id -> {
+			sleep(delays.get(id));
+			return Optional.of(user(id));
+		});
+
+		assertEquals(List.of("a", "b", "c"), results.stream().map(UserLookupResult::userId).toList());
+	}
+
+	@Test
+	void splitsFoundNotFoundAndFailed() {
+		List<UserLookupResult> results = reader(16).read(List.of("found", "missing", "broken"), id -> switch (id) {
+			case "found" -> Optional.of(user(id));
+			case "missing" -> Optional.empty();
+			default -> throw new IllegalStateException("DynamoDB indisponible");
+		});
+
+		assertEquals(List.of(UserLookupResult.Status.FOUND, UserLookupResult.Status.NOT_FOUND,
+				UserLookupResult.Status.FAILED), results.stream().map(UserLookupResult::status).toList());
+		assertEquals("found", results.get(0).user().getUserId());
+		assertEquals("DynamoDB indisponible", results.get(2).error());
+	}
+
+	@Test
+	void oneWorkerErrorOnlyFailsItsOwnId() {
+		List<UserLookupResult> results = reader(16).read(List.of("a", "boom", "c"), id -> {
+			if (id.equals("boom")) {
+				throw new AssertionError("erreur fatale");
+			}
+			sleep(50);
+			return Optional.of(user(id));
+		});
+
+		assertEquals(List.of(UserLookupResult.Status.FOUND, UserLookupResult.Status.FAILED,
+				UserLookupResult.Status.FOUND), results.stream().map(UserLookupResult::status).toList());
+		assertEquals("erreur fatale", results.get(1).error());
+	}
+
+	@Test
+	void cutsOffReadsStillPendingAtTheDeadline() {
+		deadlineGuard.begin(800);
+		long start = System.nanoTime();
+
+		List<UserLookupResult> results = reader(16).read(List.of("fast", "slow"), id -> {
+			sleep(id.equals("slow") ? 10_000 : 0);
+			return Optional.of(user(id));
+		});
+
+		long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+		assertTrue(elapsedMillis < 2_000, elapsedMillis + "ms");
+		assertEquals(UserLookupResult.Status.FOUND, results.get(0).status());
+		assertEquals(UserLookupResult.Status.FAILED, results.get(1).status());
+		assertEquals(UserFanOutReader.DEADLINE_EXCEEDED, results.get(1).error());
+	}
+
+	@Test
+	void neverRunsMoreReadsThanTheConcurrencyCap() {
+		AtomicInteger running = new AtomicInteger();
+		AtomicInteger maxRunning = new AtomicInteger();
+		List<String> ids = List.of("1", "2", "3", "4", "5", "6", "7", "8", "9", "10");
+
+		List<UserLookupResult> results = reader(3).read(ids, id -> {
+			maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+			sleep(30);
+			running.decrementAndGet();
+			return Optional.of(user(id));
+		});
+
+		assertTrue(maxRunning.get() <= 3, String.valueOf(maxRunning.get()));
+		assertTrue(results.stream().allMatch(result -> result.status() == UserLookupResult.Status.FOUND));
+	}
+}